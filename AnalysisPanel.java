@@ -0,0 +1,92 @@
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Side panel showing the live analysis of the position on the board. The worker only swaps a
+ * reference; a timer on the event thread picks it up, so repaints are capped at one per tick
+ * however fast results arrive.
+ */
+public class AnalysisPanel extends JPanel {
+    private static final long serialVersionUID = 1L;
+    private static final int REFRESH_MILLIS = 100;
+
+    private final AnalysisWorker worker = new AnalysisWorker();
+    private final JCheckBox enabled = new JCheckBox("Live analysis", true);
+    private final JLabel status = new JLabel();
+    private final JTextArea lines = new JTextArea();
+    private final JLabel timings = new JLabel();
+    private char[][] position;
+    private boolean whiteToMove;
+    private SearchResult shown;
+    private String shownStatus;
+    private long lastFrameNanos;
+    private long maxFrameNanos;
+
+    public AnalysisPanel() {
+        super(new BorderLayout());
+        setPreferredSize(new Dimension(300, 800));
+
+        lines.setEditable(false);
+        lines.setLineWrap(true);
+        lines.setWrapStyleWord(true);
+        lines.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 13));
+
+        JPanel header = new JPanel(new GridLayout(2, 1));
+        header.add(enabled);
+        header.add(status);
+        add(header, BorderLayout.NORTH);
+        add(new JScrollPane(lines), BorderLayout.CENTER);
+        add(timings, BorderLayout.SOUTH);
+
+        enabled.addActionListener(e -> {
+            if (enabled.isSelected() && position != null) {
+                worker.analyze(position, whiteToMove);
+            } else {
+                worker.stop();
+            }
+        });
+        new Timer(REFRESH_MILLIS, e -> refresh()).start();
+    }
+
+    /** Starts analysing a new position; the board is copied, so the caller may keep mutating it. */
+    public void setPosition(char[][] board, boolean isWhiteTurn) {
+        position = new char[board.length][];
+        for (int row = 0; row < board.length; row++) {
+            position[row] = board[row].clone();
+        }
+        whiteToMove = isWhiteTurn;
+        if (enabled.isSelected()) {
+            worker.analyze(position, isWhiteTurn);
+        }
+    }
+
+    /** Records how long the event thread spent on one piece of UI work; leave out work that waited on a dialog. */
+    public void recordFrame(long nanos) {
+        lastFrameNanos = nanos;
+        maxFrameNanos = Math.max(maxFrameNanos, nanos);
+    }
+
+    private void refresh() {
+        long start = System.nanoTime();
+        SearchResult result = worker.getLatest();
+        String currentStatus = worker.getStatus();
+        if (result != shown || !currentStatus.equals(shownStatus)) {
+            shown = result;
+            shownStatus = currentStatus;
+            status.setText(currentStatus);
+            lines.setText(result == null ? "" : "Depth " + result.depth + "   " + result.formatScore()
+                    + "   " + result.nodes + " nodes\n\n" + result.formatLine());
+            recordFrame(System.nanoTime() - start);
+        }
+        timings.setText(String.format("<html>UI frame: %.1f ms (max %.1f)<br>Cancel to idle: %s</html>",
+                lastFrameNanos / 1e6, maxFrameNanos / 1e6, formatCancel()));
+    }
+
+    private String formatCancel() {
+        if (worker.getLastCancelNanos() < 0) {
+            return "-";
+        }
+        return String.format("%.2f ms (max %.2f)", worker.getLastCancelNanos() / 1e6,
+                worker.getMaxCancelNanos() / 1e6);
+    }
+}
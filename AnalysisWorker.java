@@ -0,0 +1,150 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Analyses positions on a background thread so the event thread never waits on the engine.
+ * After the current position is searched, the worker ponders the position after the predicted
+ * move; if that move is then played, its result is shown at once instead of being searched again.
+ */
+public class AnalysisWorker {
+    static final int ANALYSIS_DEPTH = 6;
+
+    // One thread and one engine: a cancelled task leaves within a node, then the next one starts
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "analysis");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY); // Keep the event thread responsive
+        return thread;
+    });
+    private final Engine engine = new Engine();
+    private final Map<String, SearchResult> pondered = new ConcurrentHashMap<>();
+    // Only the task named in the view may replace it, so a cancelled task can never overwrite a newer one
+    private final AtomicReference<View> view = new AtomicReference<>(new View(null, null, "idle"));
+    private volatile long lastCancelNanos = -1;
+    private volatile long maxCancelNanos = -1;
+    private Task current;
+
+    /** Cancels whatever is running and starts analysing {@code position}. Call on the event thread. */
+    public void analyze(char[][] position, boolean whiteToMove) {
+        stop();
+        SearchResult ready = pondered.get(Engine.positionKey(position, whiteToMove));
+        pondered.clear();
+        current = new Task(copyOf(position), whiteToMove, ready);
+        view.set(new View(current, ready, ready != null ? "ponder hit" : "thinking"));
+        executor.execute(current);
+    }
+
+    /** Cancels the running search without waiting for the worker to become idle. */
+    public void stop() {
+        if (current != null) {
+            current.cancelRequestedAt = System.nanoTime();
+            current.cancelled.set(true);
+            current = null;
+        }
+        view.set(new View(null, view.get().result, "idle"));
+    }
+
+    /** The deepest result for the current position, or null if nothing has completed yet. */
+    public SearchResult getLatest() {
+        return view.get().result;
+    }
+
+    public String getStatus() {
+        return view.get().status;
+    }
+
+    /** Time from the most recent cancel request until the worker stopped searching, or -1. */
+    public long getLastCancelNanos() {
+        return lastCancelNanos;
+    }
+
+    public long getMaxCancelNanos() {
+        return maxCancelNanos;
+    }
+
+    private static char[][] copyOf(char[][] position) {
+        char[][] copy = new char[position.length][];
+        for (int row = 0; row < position.length; row++) {
+            copy[row] = position[row].clone();
+        }
+        return copy;
+    }
+
+    private class Task implements Runnable {
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        volatile long cancelRequestedAt;
+        private final char[][] board;
+        private final boolean whiteToMove;
+        private final SearchResult ready;
+
+        Task(char[][] board, boolean whiteToMove, SearchResult ready) {
+            this.board = board;
+            this.whiteToMove = whiteToMove;
+            this.ready = ready;
+        }
+
+        @Override
+        public void run() {
+            try {
+                SearchResult result = ready;
+                if (result == null || result.depth < ANALYSIS_DEPTH) {
+                    result = engine.search(board, whiteToMove, ANALYSIS_DEPTH, cancelled, this::publish);
+                }
+                if (cancelled.get() || result == null || result.bestMove() == -1) {
+                    return;
+                }
+
+                int predicted = result.bestMove();
+                update(null, "pondering " + Engine.moveToString(predicted));
+                char[][] ponderBoard = Engine.applyMove(board, predicted);
+                String ponderKey = Engine.positionKey(ponderBoard, !whiteToMove);
+                engine.search(ponderBoard, !whiteToMove, ANALYSIS_DEPTH, cancelled,
+                        ponderResult -> pondered.put(ponderKey, ponderResult));
+                if (!cancelled.get()) {
+                    update(null, "done");
+                }
+            } finally {
+                if (cancelled.get()) {
+                    long elapsed = System.nanoTime() - cancelRequestedAt;
+                    lastCancelNanos = elapsed;
+                    maxCancelNanos = Math.max(maxCancelNanos, elapsed);
+                }
+            }
+        }
+
+        // Shallower iterations than a ponder hit already showed would only make the display go backwards
+        private void publish(SearchResult result) {
+            if (ready == null || result.depth > ready.depth) {
+                update(result, null);
+            }
+        }
+
+        // Replaces the result and/or status (null keeps the old one) unless a newer task owns the view
+        private void update(SearchResult result, String status) {
+            View shown;
+            do {
+                shown = view.get();
+                if (shown.task != this) {
+                    return;
+                }
+            } while (!view.compareAndSet(shown, new View(this, result != null ? result : shown.result,
+                    status != null ? status : shown.status)));
+        }
+    }
+
+    private static class View {
+        final Task task;
+        final SearchResult result;
+        final String status;
+
+        View(Task task, SearchResult result, String status) {
+            this.task = task;
+            this.result = result;
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Analyses every position of an EPD file without opening a window. Positions are streamed from the
+ * input and searched on a fixed pool of threads, each reusing one {@link Engine} (and so its
+ * transposition table) for all of its positions. Results are written as soon as every earlier
+ * line has been written, so the output keeps the input order. Throughput and per-position latency
+ * percentiles are printed to standard error at the end.
+ *
+ * <p>The {@code acd}, {@code acn} and {@code acs} operations of an input line, if present, set the
+ * depth, node and seconds limits for that position; otherwise the command-line limits apply.
+ * Each output line gets fresh {@code acd}, {@code acn}, {@code ce}, {@code pm} and {@code pv}
+ * operations (and {@code dm} for a forced mate). Moves are in coordinate notation, e.g. e2e4.
+ */
+public class BatchAnalysis {
+    private static final String USAGE = "Usage: java BatchAnalysis <input.epd|-> [-o output.epd] [-threads N]"
+            + " [-depth D] [-nodes N] [-time ms] [-hash bits]";
+    private static final int IN_FLIGHT_PER_THREAD = 4;
+
+    private final int threads;
+    private final int depth;
+    private final long nodes;
+    private final long millis;
+    private final ThreadLocal<Engine> engines;
+    private final Semaphore inFlight;
+    private final PrintWriter out;
+
+    // Guarded by this
+    private final Map<Long, String> finished = new HashMap<>();
+    private long nextToWrite;
+    private long[] latencies = new long[1024];
+    private int analysed;
+    private long totalNodes;
+
+    BatchAnalysis(int threads, int depth, long nodes, long millis, int tableBits, Writer out) {
+        this.threads = threads;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.millis = millis;
+        engines = ThreadLocal.withInitial(() -> new Engine(tableBits));
+        inFlight = new Semaphore(threads * IN_FLIGHT_PER_THREAD); // Bounds memory when one position is slow
+        this.out = new PrintWriter(out);
+    }
+
+    /** Analyses every line of {@code input} and returns once all results have been written. */
+    void run(BufferedReader input) throws IOException, InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        long index = 0;
+        try {
+            String line;
+            while ((line = input.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                inFlight.acquire();
+                long lineIndex = index++;
+                String epd = line;
+                pool.execute(() -> analyseAndComplete(lineIndex, epd));
+            }
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            out.flush();
+        }
+        printReport(System.nanoTime() - start);
+    }
+
+    // Every index must be completed, even after an Error, or the output and the semaphore stall
+    private void analyseAndComplete(long index, String line) {
+        String result = line; // Echoed unchanged if the analysis fails
+        try {
+            result = analyse(line);
+        } finally {
+            complete(index, result);
+        }
+    }
+
+    private String analyse(String line) {
+        long start = System.nanoTime();
+        try {
+            EpdPosition position = EpdPosition.parse(line);
+            int positionDepth = (int) position.longOperation("acd", depth);
+            if (positionDepth < 1) {
+                throw new IllegalArgumentException("Depth must be at least 1");
+            }
+            long positionNodes = position.longOperation("acn", nodes);
+            long positionMillis = position.operations.containsKey("acs")
+                    ? position.longOperation("acs", 0) * 1000 : millis;
+
+            Engine engine = engines.get();
+            SearchResult result = engine.search(position.board, position.whiteToMove, positionDepth, positionNodes,
+                    positionMillis, new AtomicBoolean(), ignored -> {});
+            long searchedNodes = engine.getNodes(); // Includes an iteration cut short by a limit
+            recordLatency(System.nanoTime() - start, searchedNodes);
+            return format(position, result, searchedNodes);
+        } catch (RuntimeException e) {
+            System.err.println("Skipping \"" + line + "\": " + e.getMessage());
+            return line;
+        }
+    }
+
+    private static String format(EpdPosition position, SearchResult result, long searchedNodes) {
+        StringBuilder line = new StringBuilder(position.positionFields());
+        for (Map.Entry<String, String> operation : position.operations.entrySet()) {
+            String opcode = operation.getKey();
+            if (!Arrays.asList("acd", "acn", "acs", "ce", "dm", "pm", "pv").contains(opcode)) {
+                line.append(' ').append(opcode);
+                if (!operation.getValue().isEmpty()) {
+                    line.append(' ').append(operation.getValue());
+                }
+                line.append(';');
+            }
+        }
+        line.append(" acd ").append(result.depth).append(';');
+        line.append(" acn ").append(searchedNodes).append(';');
+        line.append(" ce ").append(result.score).append(';');
+        if (Engine.isMateScore(result.score) && result.score > 0) {
+            line.append(" dm ").append((Engine.matePlies(result.score) + 1) / 2).append(';');
+        }
+        if (result.bestMove() != -1) {
+            line.append(" pm ").append(Engine.moveToString(result.bestMove())).append(';');
+            line.append(" pv ").append(result.formatLine()).append(';');
+        }
+        return line.toString();
+    }
+
+    private synchronized void recordLatency(long nanos, long searchNodes) {
+        if (analysed == latencies.length) {
+            latencies = Arrays.copyOf(latencies, analysed * 2);
+        }
+        latencies[analysed++] = nanos;
+        totalNodes += searchNodes;
+    }
+
+    // Writes the longest run of finished lines that continues the output
+    private synchronized void complete(long index, String line) {
+        finished.put(index, line);
+        String next;
+        while ((next = finished.remove(nextToWrite)) != null) {
+            out.println(next);
+            nextToWrite++;
+            inFlight.release();
+        }
+        out.flush();
+    }
+
+    private synchronized void printReport(long elapsedNanos) {
+        long[] sorted = Arrays.copyOf(latencies, analysed);
+        Arrays.sort(sorted);
+        double seconds = elapsedNanos / 1e9;
+        System.err.printf("%d positions in %.2f s: %.1f positions/s, %.0f nodes/s on %d threads%n",
+                analysed, seconds, analysed / seconds, totalNodes / seconds, threads);
+        if (analysed > 0) {
+            System.err.printf("Latency ms: p50 %.1f  p90 %.1f  p99 %.1f  max %.1f%n", percentile(sorted, 50),
+                    percentile(sorted, 90), percentile(sorted, 99), sorted[sorted.length - 1] / 1e6);
+        }
+    }
+
+    private static double percentile(long[] sorted, int percent) {
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, rank)] / 1e6;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 0) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        String input = args[0];
+        String output = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int depth = 6;
+        long nodes = Long.MAX_VALUE;
+        long millis = 0;
+        int tableBits = Engine.DEFAULT_TABLE_BITS;
+        try {
+            for (int i = 1; i < args.length; i += 2) {
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+                }
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "-o" -> output = value;
+                    case "-threads" -> threads = Integer.parseInt(value);
+                    case "-depth" -> depth = Integer.parseInt(value);
+                    case "-nodes" -> nodes = Long.parseLong(value);
+                    case "-time" -> millis = Long.parseLong(value);
+                    case "-hash" -> tableBits = Integer.parseInt(value);
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            if (threads < 1) {
+                throw new IllegalArgumentException("-threads must be at least 1");
+            }
+            if (depth < 1) {
+                throw new IllegalArgumentException("-depth must be at least 1");
+            }
+            if (tableBits < 1 || tableBits > 30) {
+                throw new IllegalArgumentException("-hash must be between 1 and 30");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        Reader reader = input.equals("-") ? new InputStreamReader(System.in) : new FileReader(input);
+        Writer writer = output == null ? new OutputStreamWriter(System.out) : new FileWriter(output);
+        try (BufferedReader lines = new BufferedReader(reader); writer) {
+            new BatchAnalysis(threads, depth, nodes, millis, tableBits, writer).run(lines);
+        }
+    }
+}
@@ -2,12 +2,19 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.KeyEvent;
+import java.util.function.IntSupplier;
 
 public class ChessGame {
     private static final int SIZE = 8;
     private char[][] board;
     private boolean isWhiteTurn;
     private JButton[][] buttons;
+    private AnalysisPanel analysisPanel;
+    private GameHistory history;
+    private JSlider historySlider;
+    private int viewedPly; // Ply shown on the board; below history.length() while reviewing
+    private boolean dialogShown; // Set when a click opened a modal dialog, whose time is not frame time
     private int selectedRow = -1;
     private int selectedCol = -1;
 
@@ -23,6 +30,7 @@ public class ChessGame {
                 { 'R', 'N', 'B', 'Q', 'K', 'B', 'N', 'R' } // White pieces
         };
         isWhiteTurn = true; // White starts the game
+        history = new GameHistory(board, isWhiteTurn);
         buttons = new JButton[SIZE][SIZE];
         initializeGUI();
     }
@@ -30,8 +38,9 @@ public class ChessGame {
     private void initializeGUI() {
         JFrame frame = new JFrame("Chess Game");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.setSize(800, 800);
-        frame.setLayout(new GridLayout(SIZE, SIZE));
+        frame.setSize(1100, 800);
+        frame.setLayout(new BorderLayout());
+        JPanel boardPanel = new JPanel(new GridLayout(SIZE, SIZE));
 
         for (int row = 0; row < SIZE; row++) {
             for (int col = 0; col < SIZE; col++) {
@@ -39,7 +48,7 @@ public class ChessGame {
                 buttons[row][col].setPreferredSize(new Dimension(150, 150));
                 buttons[row][col].setBackground((row + col) % 2 == 0 ? Color.WHITE : Color.GRAY);
                 setPieceIcon(buttons[row][col], board[row][col]);
-                frame.add(buttons[row][col]);
+                boardPanel.add(buttons[row][col]);
 
                 final int currentRow = row;
                 final int currentCol = col;
@@ -47,7 +56,49 @@ public class ChessGame {
             }
         }
 
+        historySlider = new JSlider(0, 0, 0);
+        historySlider.addChangeListener(e -> seek(historySlider.getValue()));
+        bindHistoryKey(frame, KeyEvent.VK_LEFT, "previousPly", () -> viewedPly - 1);
+        bindHistoryKey(frame, KeyEvent.VK_RIGHT, "nextPly", () -> viewedPly + 1);
+        bindHistoryKey(frame, KeyEvent.VK_HOME, "firstPly", () -> 0);
+        bindHistoryKey(frame, KeyEvent.VK_END, "lastPly", () -> history.length());
+
+        analysisPanel = new AnalysisPanel();
+        frame.add(boardPanel, BorderLayout.CENTER);
+        frame.add(historySlider, BorderLayout.SOUTH);
+        frame.add(analysisPanel, BorderLayout.EAST);
         frame.setVisible(true);
+        analysisPanel.setPosition(board, isWhiteTurn); // Start thinking while the user does
+    }
+
+    private void bindHistoryKey(JFrame frame, int keyCode, String name, IntSupplier targetPly) {
+        JRootPane rootPane = frame.getRootPane();
+        rootPane.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(keyCode, 0), name);
+        rootPane.getActionMap().put(name, new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                int ply = Math.max(0, Math.min(history.length(), targetPly.getAsInt()));
+                historySlider.setValue(ply); // Fires the slider's listener, which seeks
+            }
+        });
+    }
+
+    // Shows an earlier (or the latest) position; playing a move from there discards the later moves
+    private void seek(int ply) {
+        if (ply == viewedPly) {
+            return;
+        }
+        long start = System.nanoTime();
+        resetSelection(); // Also clears the check highlight of the position being left
+        history.positionAt(ply, board);
+        viewedPly = ply;
+        isWhiteTurn = history.isWhiteToMove(ply);
+        updateBoard();
+        if (isKingInCheck()) {
+            highlightKingInCheck();
+        }
+        analysisPanel.setPosition(board, isWhiteTurn);
+        analysisPanel.recordFrame(System.nanoTime() - start);
     }
 
     private void setPieceIcon(JButton button, char piece) {
@@ -76,6 +127,8 @@ public class ChessGame {
     }
 
     private void handleButtonClick(int row, int col) {
+        long start = System.nanoTime();
+        dialogShown = false;
         if (isKingInCheck()) {
             // If the king is in check, restrict moves to only the king and blocking pieces
 
@@ -101,17 +154,30 @@ public class ChessGame {
                     promotePawn(row, col);
                 }
 
+                if (viewedPly < history.length()) {
+                    history.truncate(viewedPly); // Playing on from an earlier position
+                }
+                history.addMove(selectedRow, selectedCol, row, col, board[row][col]);
+                viewedPly = history.length();
+                // One model update, so the slider's listener only ever sees the ply already shown
+                historySlider.getModel().setRangeProperties(viewedPly, 0, 0, viewedPly, false);
+
                 updateBoard();
-                isWhiteTurn = !isWhiteTurn; // Switch turns
+                isWhiteTurn = history.isWhiteToMove(viewedPly); // Switch turns
+                analysisPanel.setPosition(board, isWhiteTurn);
             }
             resetSelection();
         }
 
         checkForCheckmate();
+        if (!dialogShown) {
+            analysisPanel.recordFrame(System.nanoTime() - start);
+        }
     }
 
     private void promotePawn(int row, int col) {
         String[] choices = { "Queen", "Rook", "Bishop", "Knight" };
+        dialogShown = true;
         String promotionChoice = (String) JOptionPane.showInputDialog(
                 null,
                 "Choose a promotion:",
@@ -245,6 +311,7 @@ public class ChessGame {
             if (!hasValidMove) {
                 // Checkmate detected
                 String winner = isWhiteTurn ? "Black" : "White";
+                dialogShown = true;
                 JOptionPane.showMessageDialog(
                     null,
                     "Checkmate! " + winner + " wins!",
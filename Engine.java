@@ -0,0 +1,604 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Alpha-beta search over the same board layout and move rules as {@link ChessGame}
+ * (row 0 is Black's back rank, upper case is White, ' ' is empty).
+ * An instance keeps its buffers and transposition table between searches and is not thread-safe;
+ * give each worker its own.
+ */
+public class Engine {
+    static final int SIZE = 8;
+    private static final int MAX_PLY = 64;
+    private static final int MAX_MOVES = 256;
+    static final int MATE = 100000;
+    private static final int PROMOTION = 1 << 12;
+    private static final int INFINITY = MATE + 1;
+    private static final int TIME_CHECK_NODES = 1024;
+    static final int DEFAULT_TABLE_BITS = 18;
+
+    static final String PIECES = " PNBRQKpnbrqk"; // Index 0 is an empty square
+    private static final long[][] ZOBRIST = new long[PIECES.length()][SIZE * SIZE]; // Row 0 (empty) stays zero
+    private static final long ZOBRIST_BLACK_TO_MOVE;
+    private static final int EXACT = 0, LOWER_BOUND = 1, UPPER_BOUND = 2;
+
+    private static final int[][] KNIGHT_STEPS = {
+            { -2, -1 }, { -2, 1 }, { -1, -2 }, { -1, 2 }, { 1, -2 }, { 1, 2 }, { 2, -1 }, { 2, 1 } };
+    private static final int[][] KING_STEPS = {
+            { -1, -1 }, { -1, 0 }, { -1, 1 }, { 0, -1 }, { 0, 1 }, { 1, -1 }, { 1, 0 }, { 1, 1 } };
+    private static final int[][] ROOK_DIRECTIONS = { { -1, 0 }, { 1, 0 }, { 0, -1 }, { 0, 1 } };
+    private static final int[][] BISHOP_DIRECTIONS = { { -1, -1 }, { -1, 1 }, { 1, -1 }, { 1, 1 } };
+
+    static {
+        Random random = new Random(20241019L); // Fixed seed keeps node counts reproducible
+        for (int piece = 1; piece < PIECES.length(); piece++) {
+            for (int square = 0; square < SIZE * SIZE; square++) {
+                ZOBRIST[piece][square] = random.nextLong();
+            }
+        }
+        ZOBRIST_BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private final char[][] board = new char[SIZE][SIZE];
+    private boolean isWhiteTurn;
+    private final int[][] moveBuffers = new int[MAX_PLY + 1][MAX_MOVES];
+    private final int[][] orderScores = new int[MAX_PLY + 1][MAX_MOVES];
+    private final int[][] pv = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+    private long hash;
+    // Transposition table: full key per slot, value packs score, depth, bound and best move
+    private final long[] tableKeys;
+    private final long[] tableEntries;
+    private final int tableMask;
+    private AtomicBoolean cancelled;
+    private boolean stopped;
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    private int completedDepth;
+    private int rootBestMove;
+
+    public Engine() {
+        this(DEFAULT_TABLE_BITS);
+    }
+
+    /** Creates an engine whose transposition table has {@code 2^tableBits} entries of 16 bytes. */
+    public Engine(int tableBits) {
+        tableKeys = new long[1 << tableBits];
+        tableEntries = new long[1 << tableBits];
+        tableMask = (1 << tableBits) - 1;
+    }
+
+    /**
+     * Iteratively deepens from depth 1 to {@code maxDepth}, reporting every completed iteration to
+     * {@code listener}. Setting {@code cancelled} aborts the search within a node; the unfinished
+     * iteration is discarded and the last completed one is returned (null if none completed).
+     */
+    public SearchResult search(char[][] position, boolean whiteToMove, int maxDepth, AtomicBoolean cancelled,
+            Consumer<SearchResult> listener) {
+        return search(position, whiteToMove, maxDepth, Long.MAX_VALUE, 0, cancelled, listener);
+    }
+
+    /**
+     * As above, but also stops once roughly {@code maxNodes} nodes have been searched or
+     * {@code maxMillis} (if positive) have passed. Depth 1 always completes, so a result is returned
+     * unless the search was cancelled. The transposition table is kept from earlier searches.
+     */
+    public SearchResult search(char[][] position, boolean whiteToMove, int maxDepth, long maxNodes, long maxMillis,
+            AtomicBoolean cancelled, Consumer<SearchResult> listener) {
+        for (int row = 0; row < SIZE; row++) {
+            System.arraycopy(position[row], 0, board[row], 0, SIZE);
+        }
+        isWhiteTurn = whiteToMove;
+        hash = computeHash();
+        this.cancelled = cancelled;
+        stopped = false;
+        nodes = 0;
+        nodeLimit = maxNodes;
+        deadline = maxMillis > 0 ? System.nanoTime() + maxMillis * 1_000_000 : Long.MAX_VALUE;
+        completedDepth = 0;
+        rootBestMove = -1;
+
+        SearchResult best = null;
+        for (int depth = 1; depth <= Math.min(maxDepth, MAX_PLY - 1); depth++) {
+            int score = negamax(depth, 0, -INFINITY, INFINITY);
+            if (stopped) {
+                break; // Incomplete iteration
+            }
+            completedDepth = depth;
+            best = new SearchResult(depth, score, nodes, Arrays.copyOf(pv[0], pvLength[0]), whiteToMove);
+            listener.accept(best);
+            if (pvLength[0] == 0 || isMateScore(score)) {
+                break; // No legal moves, or a forced mate was found
+            }
+            rootBestMove = pv[0][0];
+        }
+        return best;
+    }
+
+    /** Nodes visited by the last search, including any iteration it abandoned. */
+    public long getNodes() {
+        return nodes;
+    }
+
+    // Limits other than cancellation only apply once depth 1 has completed
+    private boolean isStopped() {
+        if (!stopped) {
+            stopped = cancelled.get() || (completedDepth > 0 && (nodes >= nodeLimit
+                    || (nodes % TIME_CHECK_NODES == 0 && System.nanoTime() > deadline)));
+        }
+        return stopped;
+    }
+
+    private int negamax(int depth, int ply, int alpha, int beta) {
+        pvLength[ply] = ply;
+        if (isStopped()) {
+            return 0;
+        }
+        if (depth == 0 || ply >= MAX_PLY) {
+            return quiesce(ply, alpha, beta);
+        }
+        nodes++;
+
+        int slot = (int) hash & tableMask;
+        int tableMove = -1;
+        if (tableKeys[slot] == hash) {
+            long entry = tableEntries[slot];
+            tableMove = entryMove(entry);
+            // At the root the principal variation is needed, so only use the move there
+            if (ply > 0 && entryDepth(entry) >= depth) {
+                int score = fromTableScore(entryScore(entry), ply);
+                int bound = entryBound(entry);
+                if (bound == EXACT || (bound == LOWER_BOUND && score >= beta)
+                        || (bound == UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int[] moves = moveBuffers[ply];
+        int count = generateMoves(moves, false);
+        scoreMoves(ply, count, ply == 0 && rootBestMove != -1 ? rootBestMove : tableMove);
+
+        int originalAlpha = alpha;
+        int bestMove = -1;
+        int legalMoves = 0;
+        for (int i = 0; i < count; i++) {
+            int move = pickMove(ply, count, i);
+            char captured = makeMove(move);
+            if (isKingAttacked(!isWhiteTurn)) {
+                unmakeMove(move, captured);
+                continue; // Leaves our own king in check
+            }
+            legalMoves++;
+            int score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            unmakeMove(move, captured);
+            if (stopped) {
+                return 0;
+            }
+
+            if (score > alpha) {
+                alpha = score;
+                bestMove = move;
+                pv[ply][ply] = move;
+                System.arraycopy(pv[ply + 1], ply + 1, pv[ply], ply + 1, pvLength[ply + 1] - ply - 1);
+                pvLength[ply] = pvLength[ply + 1];
+                if (alpha >= beta) {
+                    break; // Beta cutoff
+                }
+            }
+        }
+
+        if (legalMoves == 0) {
+            return isKingAttacked(isWhiteTurn) ? -MATE + ply : 0; // Checkmate or stalemate
+        }
+        int bound = alpha >= beta ? LOWER_BOUND : alpha > originalAlpha ? EXACT : UPPER_BOUND;
+        tableKeys[slot] = hash;
+        tableEntries[slot] = packEntry(toTableScore(alpha, ply), depth, bound, bestMove);
+        return alpha;
+    }
+
+    private int quiesce(int ply, int alpha, int beta) {
+        pvLength[ply] = ply;
+        nodes++;
+        int standPat = evaluate();
+        if (ply >= MAX_PLY || isStopped()) {
+            return standPat;
+        }
+        if (standPat >= beta) {
+            return beta;
+        }
+        if (standPat > alpha) {
+            alpha = standPat;
+        }
+
+        int[] moves = moveBuffers[ply];
+        int count = generateMoves(moves, true);
+        scoreMoves(ply, count, -1);
+        for (int i = 0; i < count; i++) {
+            int move = pickMove(ply, count, i);
+            char captured = makeMove(move);
+            if (isKingAttacked(!isWhiteTurn)) {
+                unmakeMove(move, captured);
+                continue;
+            }
+            int score = -quiesce(ply + 1, -beta, -alpha);
+            unmakeMove(move, captured);
+            if (score >= beta) {
+                return beta;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+        }
+        return alpha;
+    }
+
+    // Material plus a small centralisation bonus for minor pieces, from the side to move's point of view
+    private int evaluate() {
+        int score = 0;
+        for (int row = 0; row < SIZE; row++) {
+            for (int col = 0; col < SIZE; col++) {
+                char piece = board[row][col];
+                if (piece == ' ') {
+                    continue;
+                }
+                int value = pieceValue(piece);
+                char type = Character.toLowerCase(piece);
+                if (type == 'n' || type == 'b') {
+                    value += 2 * (14 - Math.abs(2 * row - 7) - Math.abs(2 * col - 7));
+                } else if (type == 'p') {
+                    value += 4 * (Character.isUpperCase(piece) ? 6 - row : row - 1); // Advanced pawns
+                }
+                score += Character.isUpperCase(piece) ? value : -value;
+            }
+        }
+        return isWhiteTurn ? score : -score;
+    }
+
+    private static int pieceValue(char piece) {
+        switch (Character.toLowerCase(piece)) {
+            case 'p':
+                return 100;
+            case 'n':
+                return 320;
+            case 'b':
+                return 330;
+            case 'r':
+                return 500;
+            case 'q':
+                return 900;
+        }
+        return 0; // King (never captured) and empty squares
+    }
+
+    // Captures first (most valuable victim, least valuable attacker), preferred move ahead of everything
+    private void scoreMoves(int ply, int count, int preferredMove) {
+        int[] moves = moveBuffers[ply];
+        int[] scores = orderScores[ply];
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            char victim = board[toSquare(move) / SIZE][toSquare(move) % SIZE];
+            char attacker = board[fromSquare(move) / SIZE][fromSquare(move) % SIZE];
+            if (move == preferredMove) {
+                scores[i] = Integer.MAX_VALUE;
+            } else if (victim != ' ') {
+                scores[i] = 10 * pieceValue(victim) - pieceValue(attacker) + 10000;
+            } else if ((move & PROMOTION) != 0) {
+                scores[i] = 9000;
+            } else {
+                scores[i] = 0;
+            }
+        }
+    }
+
+    // Selection sort step: brings the best remaining move to index i
+    private int pickMove(int ply, int count, int i) {
+        int[] moves = moveBuffers[ply];
+        int[] scores = orderScores[ply];
+        int best = i;
+        for (int j = i + 1; j < count; j++) {
+            if (scores[j] > scores[best]) {
+                best = j;
+            }
+        }
+        int move = moves[best];
+        moves[best] = moves[i];
+        moves[i] = move;
+        int score = scores[best];
+        scores[best] = scores[i];
+        scores[i] = score;
+        return move;
+    }
+
+    private int generateMoves(int[] moves, boolean capturesOnly) {
+        int count = 0;
+        for (int row = 0; row < SIZE; row++) {
+            for (int col = 0; col < SIZE; col++) {
+                char piece = board[row][col];
+                if (piece == ' ' || Character.isUpperCase(piece) != isWhiteTurn) {
+                    continue;
+                }
+                switch (Character.toLowerCase(piece)) {
+                    case 'p' -> count = addPawnMoves(moves, count, row, col, capturesOnly);
+                    case 'n' -> count = addStepMoves(moves, count, row, col, KNIGHT_STEPS, capturesOnly);
+                    case 'k' -> count = addStepMoves(moves, count, row, col, KING_STEPS, capturesOnly);
+                    case 'r' -> count = addSlidingMoves(moves, count, row, col, ROOK_DIRECTIONS, capturesOnly);
+                    case 'b' -> count = addSlidingMoves(moves, count, row, col, BISHOP_DIRECTIONS, capturesOnly);
+                    case 'q' -> {
+                        count = addSlidingMoves(moves, count, row, col, ROOK_DIRECTIONS, capturesOnly);
+                        count = addSlidingMoves(moves, count, row, col, BISHOP_DIRECTIONS, capturesOnly);
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    private int addPawnMoves(int[] moves, int count, int row, int col, boolean capturesOnly) {
+        int direction = isWhiteTurn ? -1 : 1; // White moves up, Black moves down
+        int toRow = row + direction;
+        if (toRow < 0 || toRow >= SIZE) {
+            return count;
+        }
+        int promotion = toRow == 0 || toRow == SIZE - 1 ? PROMOTION : 0;
+        // Promotions change the material balance, so quiescence looks at them along with captures
+        if ((!capturesOnly || promotion != 0) && board[toRow][col] == ' ') {
+            moves[count++] = encodeMove(row, col, toRow, col) | promotion;
+            if (!capturesOnly && row == (isWhiteTurn ? 6 : 1) && board[toRow + direction][col] == ' ') {
+                moves[count++] = encodeMove(row, col, toRow + direction, col);
+            }
+        }
+        for (int toCol = col - 1; toCol <= col + 1; toCol += 2) {
+            if (toCol >= 0 && toCol < SIZE && isOpponentPiece(board[toRow][toCol])) {
+                moves[count++] = encodeMove(row, col, toRow, toCol) | promotion;
+            }
+        }
+        return count;
+    }
+
+    private int addStepMoves(int[] moves, int count, int row, int col, int[][] steps, boolean capturesOnly) {
+        for (int[] step : steps) {
+            int toRow = row + step[0];
+            int toCol = col + step[1];
+            if (toRow < 0 || toRow >= SIZE || toCol < 0 || toCol >= SIZE) {
+                continue;
+            }
+            char target = board[toRow][toCol];
+            if (isOpponentPiece(target) || (!capturesOnly && target == ' ')) {
+                moves[count++] = encodeMove(row, col, toRow, toCol);
+            }
+        }
+        return count;
+    }
+
+    private int addSlidingMoves(int[] moves, int count, int row, int col, int[][] directions,
+            boolean capturesOnly) {
+        for (int[] direction : directions) {
+            int toRow = row + direction[0];
+            int toCol = col + direction[1];
+            while (toRow >= 0 && toRow < SIZE && toCol >= 0 && toCol < SIZE) {
+                char target = board[toRow][toCol];
+                if (target != ' ') {
+                    if (isOpponentPiece(target)) {
+                        moves[count++] = encodeMove(row, col, toRow, toCol);
+                    }
+                    break; // Path is blocked
+                }
+                if (!capturesOnly) {
+                    moves[count++] = encodeMove(row, col, toRow, toCol);
+                }
+                toRow += direction[0];
+                toCol += direction[1];
+            }
+        }
+        return count;
+    }
+
+    private boolean isOpponentPiece(char piece) {
+        return piece != ' ' && Character.isUpperCase(piece) != isWhiteTurn;
+    }
+
+    private char makeMove(int move) {
+        int fromRow = fromSquare(move) / SIZE, fromCol = fromSquare(move) % SIZE;
+        int toRow = toSquare(move) / SIZE, toCol = toSquare(move) % SIZE;
+        char movingPiece = board[fromRow][fromCol];
+        char captured = board[toRow][toCol];
+        char placedPiece = movingPiece;
+        if ((move & PROMOTION) != 0) {
+            placedPiece = Character.isUpperCase(movingPiece) ? 'Q' : 'q'; // The engine always promotes to a queen
+        }
+        board[toRow][toCol] = placedPiece;
+        board[fromRow][fromCol] = ' ';
+        isWhiteTurn = !isWhiteTurn;
+        hash ^= moveKey(move, movingPiece, placedPiece, captured);
+        return captured;
+    }
+
+    private void unmakeMove(int move, char captured) {
+        int fromRow = fromSquare(move) / SIZE, fromCol = fromSquare(move) % SIZE;
+        int toRow = toSquare(move) / SIZE, toCol = toSquare(move) % SIZE;
+        char placedPiece = board[toRow][toCol];
+        char movedPiece = placedPiece;
+        if ((move & PROMOTION) != 0) {
+            movedPiece = Character.isUpperCase(placedPiece) ? 'P' : 'p';
+        }
+        board[fromRow][fromCol] = movedPiece;
+        board[toRow][toCol] = captured;
+        isWhiteTurn = !isWhiteTurn;
+        hash ^= moveKey(move, movedPiece, placedPiece, captured);
+    }
+
+    // XOR-ing the same key applies a move to the hash and takes it back again
+    private static long moveKey(int move, char movingPiece, char placedPiece, char captured) {
+        int from = fromSquare(move), to = toSquare(move);
+        return ZOBRIST[PIECES.indexOf(movingPiece)][from] ^ ZOBRIST[PIECES.indexOf(placedPiece)][to]
+                ^ ZOBRIST[PIECES.indexOf(captured)][to] ^ ZOBRIST_BLACK_TO_MOVE;
+    }
+
+    private long computeHash() {
+        long key = isWhiteTurn ? 0 : ZOBRIST_BLACK_TO_MOVE;
+        for (int square = 0; square < SIZE * SIZE; square++) {
+            key ^= ZOBRIST[PIECES.indexOf(board[square / SIZE][square % SIZE])][square];
+        }
+        return key;
+    }
+
+    private static long packEntry(int score, int depth, int bound, int move) {
+        return (long) score << 32 | (long) depth << 24 | (long) bound << 16 | (move & 0xFFFF);
+    }
+
+    private static int entryScore(long entry) {
+        return (int) (entry >> 32);
+    }
+
+    private static int entryDepth(long entry) {
+        return (int) (entry >> 24) & 0xFF;
+    }
+
+    private static int entryBound(long entry) {
+        return (int) (entry >> 16) & 0x3;
+    }
+
+    private static int entryMove(long entry) {
+        int move = (int) entry & 0xFFFF;
+        return move == 0xFFFF ? -1 : move;
+    }
+
+    // Mate scores are stored relative to the entry's node so they stay valid at any ply
+    private static int toTableScore(int score, int ply) {
+        if (!isMateScore(score)) {
+            return score;
+        }
+        return score > 0 ? score + ply : score - ply;
+    }
+
+    // Stored mate scores are at least as far from zero as the searched ones, so isMateScore still holds
+    private static int fromTableScore(int score, int ply) {
+        if (!isMateScore(score)) {
+            return score;
+        }
+        return score > 0 ? score - ply : score + ply;
+    }
+
+    /** Whether {@code score} announces a forced mate for either side; mates are always found within MAX_PLY. */
+    static boolean isMateScore(int score) {
+        return Math.abs(score) >= MATE - MAX_PLY;
+    }
+
+    /** Plies until mate for a score where {@link #isMateScore} holds. */
+    static int matePlies(int score) {
+        return MATE - Math.abs(score);
+    }
+
+    private boolean isKingAttacked(boolean whiteKing) {
+        char king = whiteKing ? 'K' : 'k';
+        for (int row = 0; row < SIZE; row++) {
+            for (int col = 0; col < SIZE; col++) {
+                if (board[row][col] == king) {
+                    return isSquareAttacked(row, col, !whiteKing);
+                }
+            }
+        }
+        return false; // No king on the board
+    }
+
+    private boolean isSquareAttacked(int row, int col, boolean byWhite) {
+        // Pawns attack diagonally forward, so look one row behind the square from the attacker's side
+        int pawnRow = byWhite ? row + 1 : row - 1;
+        char pawn = byWhite ? 'P' : 'p';
+        if (pawnRow >= 0 && pawnRow < SIZE) {
+            if ((col > 0 && board[pawnRow][col - 1] == pawn) || (col < SIZE - 1 && board[pawnRow][col + 1] == pawn)) {
+                return true;
+            }
+        }
+        if (isAttackedByStep(row, col, KNIGHT_STEPS, byWhite ? 'N' : 'n')
+                || isAttackedByStep(row, col, KING_STEPS, byWhite ? 'K' : 'k')) {
+            return true;
+        }
+        char queen = byWhite ? 'Q' : 'q';
+        return isAttackedBySlider(row, col, ROOK_DIRECTIONS, byWhite ? 'R' : 'r', queen)
+                || isAttackedBySlider(row, col, BISHOP_DIRECTIONS, byWhite ? 'B' : 'b', queen);
+    }
+
+    private boolean isAttackedByStep(int row, int col, int[][] steps, char attacker) {
+        for (int[] step : steps) {
+            int fromRow = row + step[0];
+            int fromCol = col + step[1];
+            if (fromRow >= 0 && fromRow < SIZE && fromCol >= 0 && fromCol < SIZE
+                    && board[fromRow][fromCol] == attacker) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isAttackedBySlider(int row, int col, int[][] directions, char slider, char queen) {
+        for (int[] direction : directions) {
+            int fromRow = row + direction[0];
+            int fromCol = col + direction[1];
+            while (fromRow >= 0 && fromRow < SIZE && fromCol >= 0 && fromCol < SIZE) {
+                char piece = board[fromRow][fromCol];
+                if (piece != ' ') {
+                    if (piece == slider || piece == queen) {
+                        return true;
+                    }
+                    break;
+                }
+                fromRow += direction[0];
+                fromCol += direction[1];
+            }
+        }
+        return false;
+    }
+
+    static int encodeMove(int fromRow, int fromCol, int toRow, int toCol) {
+        return (fromRow * SIZE + fromCol) | (toRow * SIZE + toCol) << 6;
+    }
+
+    static int fromSquare(int move) {
+        return move & 63;
+    }
+
+    static int toSquare(int move) {
+        return (move >> 6) & 63;
+    }
+
+    /** Coordinate notation, e.g. "e2e4" or "a7a8q". */
+    static String moveToString(int move) {
+        String text = squareName(fromSquare(move)) + squareName(toSquare(move));
+        return (move & PROMOTION) != 0 ? text + "q" : text;
+    }
+
+    static String squareName(int square) {
+        return "" + (char) ('a' + square % SIZE) + (SIZE - square / SIZE);
+    }
+
+    /** Returns a copy of {@code position} with {@code move} played on it. */
+    static char[][] applyMove(char[][] position, int move) {
+        char[][] result = new char[SIZE][];
+        for (int row = 0; row < SIZE; row++) {
+            result[row] = position[row].clone();
+        }
+        int fromRow = fromSquare(move) / SIZE, fromCol = fromSquare(move) % SIZE;
+        int toRow = toSquare(move) / SIZE, toCol = toSquare(move) % SIZE;
+        char movingPiece = result[fromRow][fromCol];
+        if ((move & PROMOTION) != 0) {
+            movingPiece = Character.isUpperCase(movingPiece) ? 'Q' : 'q';
+        }
+        result[toRow][toCol] = movingPiece;
+        result[fromRow][fromCol] = ' ';
+        return result;
+    }
+
+    /** A string that identifies the position, usable as a map key. */
+    static String positionKey(char[][] position, boolean whiteToMove) {
+        StringBuilder key = new StringBuilder(SIZE * SIZE + 1);
+        for (char[] row : position) {
+            key.append(row);
+        }
+        return key.append(whiteToMove ? 'w' : 'b').toString();
+    }
+}
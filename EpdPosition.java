@@ -0,0 +1,135 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One line of an EPD file: the first four FEN fields followed by {@code opcode operand;} operations,
+ * e.g. {@code rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - bm e5; id "open";}.
+ * The board uses the layout of {@link ChessGame}; castling and en passant fields are kept as text
+ * because the move rules do not use them.
+ */
+public class EpdPosition {
+    private static final int SIZE = 8;
+
+    final char[][] board = new char[SIZE][SIZE];
+    final boolean whiteToMove;
+    final String castling;
+    final String enPassant;
+    final Map<String, String> operations = new LinkedHashMap<>();
+
+    private EpdPosition(boolean whiteToMove, String castling, String enPassant) {
+        this.whiteToMove = whiteToMove;
+        this.castling = castling;
+        this.enPassant = enPassant;
+    }
+
+    /** Parses one EPD line; throws IllegalArgumentException if it is malformed. */
+    static EpdPosition parse(String line) {
+        String[] fields = line.trim().split("\\s+", 5);
+        if (fields.length < 4) {
+            throw new IllegalArgumentException("EPD needs four position fields: " + line);
+        }
+        if (!fields[1].equals("w") && !fields[1].equals("b")) {
+            throw new IllegalArgumentException("Side to move must be w or b: " + line);
+        }
+        EpdPosition position = new EpdPosition(fields[1].equals("w"), fields[2], fields[3]);
+        position.parsePlacement(fields[0]);
+        if (fields.length == 5) {
+            position.parseOperations(fields[4]);
+        }
+        return position;
+    }
+
+    // Ranks from 8 down to 1, which is row 0 to row 7
+    private void parsePlacement(String placement) {
+        String[] ranks = placement.split("/");
+        if (ranks.length != SIZE) {
+            throw new IllegalArgumentException("Piece placement needs 8 ranks: " + placement);
+        }
+        for (int row = 0; row < SIZE; row++) {
+            int col = 0;
+            for (char c : ranks[row].toCharArray()) {
+                if (c >= '1' && c <= '8') {
+                    for (int empty = 0; empty < c - '0' && col < SIZE; empty++) {
+                        board[row][col++] = ' ';
+                    }
+                } else if ("PNBRQKpnbrqk".indexOf(c) >= 0 && col < SIZE) {
+                    board[row][col++] = c;
+                } else {
+                    throw new IllegalArgumentException("Bad rank '" + ranks[row] + "' in " + placement);
+                }
+            }
+            if (col != SIZE) {
+                throw new IllegalArgumentException("Rank '" + ranks[row] + "' is not 8 squares wide");
+            }
+        }
+    }
+
+    // Semicolons inside quoted operands do not end an operation
+    private void parseOperations(String text) {
+        StringBuilder operation = new StringBuilder();
+        boolean quoted = false;
+        for (char c : text.toCharArray()) {
+            if (c == '"') {
+                quoted = !quoted;
+            }
+            if (c == ';' && !quoted) {
+                addOperation(operation.toString().trim());
+                operation.setLength(0);
+            } else {
+                operation.append(c);
+            }
+        }
+        addOperation(operation.toString().trim());
+    }
+
+    private void addOperation(String operation) {
+        if (operation.isEmpty()) {
+            return;
+        }
+        int space = operation.indexOf(' ');
+        if (space < 0) {
+            operations.put(operation, "");
+        } else {
+            operations.put(operation.substring(0, space), operation.substring(space + 1).trim());
+        }
+    }
+
+    /** The integer operand of {@code opcode}, or {@code fallback} if the operation is absent. */
+    long longOperation(String opcode, long fallback) {
+        String operand = operations.get(opcode);
+        if (operand == null) {
+            return fallback;
+        }
+        try {
+            return Long.parseLong(operand);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Operand of " + opcode + " is not a number: " + operand);
+        }
+    }
+
+    /** The four position fields in FEN form. */
+    String positionFields() {
+        StringBuilder fen = new StringBuilder();
+        for (int row = 0; row < SIZE; row++) {
+            int empty = 0;
+            for (int col = 0; col < SIZE; col++) {
+                if (board[row][col] == ' ') {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                fen.append(board[row][col]);
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (row < SIZE - 1) {
+                fen.append('/');
+            }
+        }
+        return fen + " " + (whiteToMove ? "w" : "b") + " " + castling + " " + enPassant;
+    }
+}
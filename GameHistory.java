@@ -0,0 +1,134 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The moves of one game, with a packed copy of the position every {@link #CHECKPOINT_INTERVAL}
+ * plies. Reaching any ply costs one unpack and at most {@code CHECKPOINT_INTERVAL - 1} replayed
+ * moves, however long the game is. Uses the board layout of {@link ChessGame} and has no UI
+ * dependencies, so it can be used headlessly. Moves go in and out as board coordinates; the stored
+ * form is {@link Engine#encodeMove} plus, for promotions, the piece chosen.
+ */
+public class GameHistory {
+    static final int CHECKPOINT_INTERVAL = 16;
+    private static final int SIZE = Engine.SIZE;
+
+    private final boolean whiteStarts;
+    private final List<byte[]> checkpoints = new ArrayList<>(); // Checkpoint i is the position at ply i * interval
+    private int[] moves = new int[64];
+    private char[] promotions = new char[64]; // Piece promoted to, or 0 if the move was not a promotion
+    private int length;
+    private final char[][] last = new char[SIZE][SIZE]; // Position after the final move
+
+    public GameHistory(char[][] start, boolean whiteToMove) {
+        whiteStarts = whiteToMove;
+        copy(start, last);
+        checkpoints.add(pack(last));
+    }
+
+    /** Number of moves played; plies range from 0 (the start) to this value. */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Records a move from the final position. {@code placedPiece} is the piece that ends up on the
+     * destination square, which differs from the moving piece only for promotions.
+     */
+    public void addMove(int fromRow, int fromCol, int toRow, int toCol, char placedPiece) {
+        if (length == moves.length) {
+            moves = Arrays.copyOf(moves, length * 2);
+            promotions = Arrays.copyOf(promotions, length * 2);
+        }
+        moves[length] = Engine.encodeMove(fromRow, fromCol, toRow, toCol);
+        promotions[length] = placedPiece != last[fromRow][fromCol] ? placedPiece : 0;
+        applyMove(last, length++);
+        if (length % CHECKPOINT_INTERVAL == 0) {
+            checkpoints.add(pack(last));
+        }
+    }
+
+    /** Drops every move after {@code ply}, e.g. when play resumes from an earlier position. */
+    public void truncate(int ply) {
+        checkRange(ply);
+        length = ply;
+        while (checkpoints.size() > ply / CHECKPOINT_INTERVAL + 1) {
+            checkpoints.remove(checkpoints.size() - 1);
+        }
+        positionAt(ply, last);
+    }
+
+    /** Returns a new board holding the position after {@code ply} moves. */
+    public char[][] positionAt(int ply) {
+        char[][] position = new char[SIZE][SIZE];
+        positionAt(ply, position);
+        return position;
+    }
+
+    /** Writes the position after {@code ply} moves into {@code into}, an 8x8 board. */
+    public void positionAt(int ply, char[][] into) {
+        checkRange(ply);
+        if (ply == length && into != last) {
+            copy(last, into);
+            return;
+        }
+        int checkpoint = ply / CHECKPOINT_INTERVAL;
+        unpack(checkpoints.get(checkpoint), into);
+        for (int i = checkpoint * CHECKPOINT_INTERVAL; i < ply; i++) {
+            applyMove(into, i);
+        }
+    }
+
+    public boolean isWhiteToMove(int ply) {
+        return whiteStarts == (ply % 2 == 0);
+    }
+
+    /** The move leading to {@code ply} in coordinate notation, e.g. "e2e4" or "e7e8n". */
+    public String moveName(int ply) {
+        if (ply < 1 || ply > length) {
+            throw new IndexOutOfBoundsException("No move leads to ply " + ply + " of " + length);
+        }
+        int move = moves[ply - 1];
+        String name = Engine.squareName(Engine.fromSquare(move)) + Engine.squareName(Engine.toSquare(move));
+        char promotion = promotions[ply - 1];
+        return promotion != 0 ? name + Character.toLowerCase(promotion) : name;
+    }
+
+    private void checkRange(int ply) {
+        if (ply < 0 || ply > length) {
+            throw new IndexOutOfBoundsException("Ply " + ply + " outside 0.." + length);
+        }
+    }
+
+    // Plays the move at index i of the history on board
+    private void applyMove(char[][] board, int i) {
+        int from = Engine.fromSquare(moves[i]);
+        int to = Engine.toSquare(moves[i]);
+        char piece = board[from / SIZE][from % SIZE];
+        board[to / SIZE][to % SIZE] = promotions[i] != 0 ? promotions[i] : piece;
+        board[from / SIZE][from % SIZE] = ' ';
+    }
+
+    // Two squares per byte
+    private static byte[] pack(char[][] board) {
+        byte[] packed = new byte[SIZE * SIZE / 2];
+        for (int square = 0; square < SIZE * SIZE; square++) {
+            int code = Engine.PIECES.indexOf(board[square / SIZE][square % SIZE]);
+            packed[square / 2] |= (byte) (square % 2 == 0 ? code : code << 4);
+        }
+        return packed;
+    }
+
+    private static void unpack(byte[] packed, char[][] board) {
+        for (int square = 0; square < SIZE * SIZE; square++) {
+            int code = square % 2 == 0 ? packed[square / 2] & 0x0F : (packed[square / 2] >> 4) & 0x0F;
+            board[square / SIZE][square % SIZE] = Engine.PIECES.charAt(code);
+        }
+    }
+
+    private static void copy(char[][] from, char[][] to) {
+        for (int row = 0; row < SIZE; row++) {
+            System.arraycopy(from[row], 0, to[row], 0, SIZE);
+        }
+    }
+}
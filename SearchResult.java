@@ -0,0 +1,55 @@
+/**
+ * One completed iteration of an {@link Engine} search. Scores are in centipawns from the side to
+ * move's point of view; mates are reported as {@code Engine.MATE} minus the distance in plies.
+ */
+public class SearchResult {
+    final int depth;
+    final int score;
+    final long nodes;
+    final int[] principalVariation;
+    final boolean whiteToMove;
+
+    SearchResult(int depth, int score, long nodes, int[] principalVariation, boolean whiteToMove) {
+        this.depth = depth;
+        this.score = score;
+        this.nodes = nodes;
+        this.principalVariation = principalVariation;
+        this.whiteToMove = whiteToMove;
+    }
+
+    /** The best move, or -1 if the side to move has no legal moves. */
+    int bestMove() {
+        return principalVariation.length > 0 ? principalVariation[0] : -1;
+    }
+
+    /** The move the engine expects in reply to {@link #bestMove()}, or -1 if there is none. */
+    int expectedReply() {
+        return principalVariation.length > 1 ? principalVariation[1] : -1;
+    }
+
+    /** Formats the score from White's point of view, e.g. "+0.35" or "#-3". */
+    String formatScore() {
+        int whiteScore = whiteToMove ? score : -score;
+        if (Engine.isMateScore(whiteScore)) {
+            int plies = Engine.matePlies(whiteScore);
+            return "#" + (whiteScore > 0 ? "" : "-") + (plies + 1) / 2;
+        }
+        return String.format("%+.2f", whiteScore / 100.0);
+    }
+
+    String formatLine() {
+        StringBuilder line = new StringBuilder();
+        for (int move : principalVariation) {
+            if (line.length() > 0) {
+                line.append(' ');
+            }
+            line.append(Engine.moveToString(move));
+        }
+        return line.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "depth " + depth + " score " + formatScore() + " nodes " + nodes + " pv " + formatLine();
+    }
+}
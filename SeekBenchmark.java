@@ -0,0 +1,53 @@
+import java.util.Random;
+
+/**
+ * Measures {@link GameHistory} seek time at several game lengths, to check that it stays flat as
+ * games grow. Games are built by shuffling both sets of knights back and forth from the start.
+ * Usage: {@code java SeekBenchmark [seeks per length]}.
+ */
+public class SeekBenchmark {
+    private static final int[] LENGTHS = { 100, 1_000, 10_000, 100_000, 1_000_000 };
+    // White and Black each play a knight out and back, a cycle of four plies
+    private static final int[][] KNIGHT_CYCLE = { { 7, 6, 5, 5 }, { 0, 6, 2, 5 }, { 5, 5, 7, 6 }, { 2, 5, 0, 6 } };
+
+    public static void main(String[] args) {
+        int seeks = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        char[][] start = {
+                "rnbqkbnr".toCharArray(), "pppppppp".toCharArray(), "        ".toCharArray(),
+                "        ".toCharArray(), "        ".toCharArray(), "        ".toCharArray(),
+                "PPPPPPPP".toCharArray(), "RNBQKBNR".toCharArray() };
+
+        measure(start, LENGTHS[LENGTHS.length - 1], seeks); // Warm up the JIT before reporting anything
+        for (int length : LENGTHS) {
+            double nanos = measure(start, length, seeks);
+            System.out.printf("%,10d plies: %6.0f ns/seek%n", length, nanos);
+        }
+    }
+
+    // Average time of one seek to a random ply of a game of the given length
+    private static double measure(char[][] start, int length, int seeks) {
+        GameHistory history = new GameHistory(start, true);
+        for (int ply = 0; ply < length; ply++) {
+            int[] move = KNIGHT_CYCLE[ply % KNIGHT_CYCLE.length];
+            history.addMove(move[0], move[1], move[2], move[3], ply % 2 == 0 ? 'N' : 'n');
+        }
+
+        Random random = new Random(length);
+        int[] plies = new int[seeks];
+        for (int i = 0; i < seeks; i++) {
+            plies[i] = random.nextInt(length + 1);
+        }
+        char[][] board = new char[start.length][start.length];
+        int checksum = 0; // Read the board so the seeks cannot be optimised away
+        long begin = System.nanoTime();
+        for (int ply : plies) {
+            history.positionAt(ply, board);
+            checksum += board[0][6];
+        }
+        long elapsed = System.nanoTime() - begin;
+        if (checksum == 0) {
+            throw new IllegalStateException("Knights never returned home");
+        }
+        return (double) elapsed / seeks;
+    }
+}